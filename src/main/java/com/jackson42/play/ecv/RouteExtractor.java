@@ -10,8 +10,12 @@ import play.api.routing.HandlerDef;
 import play.mvc.Http;
 import play.routing.Router;
 
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -28,6 +32,11 @@ public final class RouteExtractor {
      */
     private static final Pattern INDEX_PATTERN = Pattern.compile("\\$(.+?)\\<([^\\>]+)\\>");
 
+    /**
+     * The compiled routes, by route pattern.
+     */
+    private static final ConcurrentMap<String, CompiledRoute> COMPILED_ROUTES = new ConcurrentHashMap<>();
+
     /**
      * Instantiates a new Route extractor.
      */
@@ -67,6 +76,30 @@ public final class RouteExtractor {
         return stringBuffer.toString();
     }
 
+    /**
+     * Gets the compiled route.
+     *
+     * @param routePattern the route pattern
+     * @return the compiled route
+     */
+    private static CompiledRoute getCompiledRoute(final String routePattern) {
+        final CompiledRoute compiledRoute = COMPILED_ROUTES.get(routePattern);
+        if (compiledRoute != null) {
+            return compiledRoute;
+        }
+        return COMPILED_ROUTES.computeIfAbsent(routePattern, CompiledRoute::new);
+    }
+
+    /**
+     * Gets the names of the variables on the route.
+     *
+     * @param routePattern the route pattern
+     * @return the names of the variables
+     */
+    public static Collection<String> getParamNames(final String routePattern) {
+        return getCompiledRoute(routePattern).positions.values();
+    }
+
     /**
      * Extract map.
      *
@@ -75,16 +108,42 @@ public final class RouteExtractor {
      */
     public static Map<String, String> extract(final Http.Request request) {
         final HandlerDef handlerDef = request.attrs().get(Router.Attrs.HANDLER_DEF);
-        final String routePattern = handlerDef.path();
-        final String path = request.path();
-
-        final Pattern pattern = Pattern.compile(replaceRoutePatternWithGroup(routePattern));
-        final Matcher matcher = pattern.matcher(path);
+        final CompiledRoute compiledRoute = getCompiledRoute(handlerDef.path());
+        final Matcher matcher = compiledRoute.pattern.matcher(request.path());
 
         final Map<String, String> results = new HashMap<>();
         if (matcher.find()) {
-            extractPositions(routePattern).forEach((key, value) -> results.put(value, matcher.group(key + 1)));
+            compiledRoute.positions.forEach((key, value) -> results.put(value, matcher.group(key + 1)));
         }
         return results;
     }
+
+    /**
+     * A route pattern compiled once.
+     *
+     * @author Pierre Adam
+     * @since 26.10.19
+     */
+    private static final class CompiledRoute {
+
+        /**
+         * The Pattern.
+         */
+        private final Pattern pattern;
+
+        /**
+         * The Positions of the variables.
+         */
+        private final Map<Integer, String> positions;
+
+        /**
+         * Instantiates a new Compiled route.
+         *
+         * @param routePattern the route pattern
+         */
+        private CompiledRoute(final String routePattern) {
+            this.pattern = Pattern.compile(replaceRoutePatternWithGroup(routePattern));
+            this.positions = Collections.unmodifiableMap(extractPositions(routePattern));
+        }
+    }
 }
@@ -0,0 +1,50 @@
+/*
+ * Copyright (C) 2014 - 2019 PayinTech, SAS - All Rights Reserved
+ * Unauthorized copying of this file, via any medium is strictly prohibited
+ * Proprietary and confidential
+ */
+
+package com.jackson42.play.ecv.annotations;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * RateLimit.
+ *
+ * Configure the {@link com.jackson42.play.ecv.rules.RateLimitRule} on the annotated controller method.
+ * When neither params nor attributes are set, the caller is identified by its remote address.
+ * Unknown params, attributes and buckets are rejected when the rule is bound to the method.
+ *
+ * @author Pierre Adam
+ * @since 26.10.19
+ */
+@Target({ElementType.METHOD})
+@Retention(RetentionPolicy.RUNTIME)
+public @interface RateLimit {
+
+    /**
+     * The name of the bucket under "play-ecv.rate-limit.buckets".
+     *
+     * @return the name of the bucket
+     */
+    String value() default "default";
+
+    /**
+     * The names of the variables on the route identifying the caller.
+     *
+     * @return the names of the variables on the route
+     */
+    String[] params() default {};
+
+    /**
+     * The request attributes identifying the caller, as the fully qualified name of a
+     * static TypedKey field (ie: "com.example.Attrs.USER_ID"). The values MUST have a value
+     * based toString, ie: String or Long.
+     *
+     * @return the request attributes
+     */
+    String[] attributes() default {};
+}
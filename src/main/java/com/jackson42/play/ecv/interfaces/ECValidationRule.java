@@ -6,6 +6,10 @@
 
 package com.jackson42.play.ecv.interfaces;
 
+import play.api.routing.HandlerDef;
+
+import java.lang.reflect.Method;
+
 /**
  * Your Rules MUST implement this interface.
  *
@@ -15,4 +19,16 @@ package com.jackson42.play.ecv.interfaces;
  * @since 19.05.10
  */
 public interface ECValidationRule {
+
+    /**
+     * Called when the rule is bound to a controller method, before its validation methods.
+     * Throw to report a misconfiguration of the rule on this method. As Play builds the action
+     * on each request, this is called on each request and a misconfiguration fails every
+     * request on the route, starting with the first one.
+     *
+     * @param handlerDef       the handler def of the route
+     * @param controllerMethod the controller method
+     */
+    default void prepare(final HandlerDef handlerDef, final Method controllerMethod) {
+    }
 }
@@ -0,0 +1,104 @@
+/*
+ * Copyright (C) 2014 - 2019 PayinTech, SAS - All Rights Reserved
+ * Unauthorized copying of this file, via any medium is strictly prohibited
+ * Proprietary and confidential
+ */
+
+package com.jackson42.play.ecv.interfaces;
+
+/**
+ * Settings of a rate limit bucket.
+ *
+ * @author Pierre Adam
+ * @since 26.10.19
+ */
+public final class RateLimitBucket {
+
+    /**
+     * The Name.
+     */
+    private final String name;
+
+    /**
+     * The Capacity.
+     */
+    private final long capacity;
+
+    /**
+     * The Period in nanoseconds.
+     */
+    private final long period;
+
+    /**
+     * The Emission interval in nanoseconds.
+     */
+    private final long emissionInterval;
+
+    /**
+     * The Burst tolerance in nanoseconds.
+     */
+    private final long burstTolerance;
+
+    /**
+     * Instantiates a new Rate limit bucket.
+     *
+     * @param name     the name
+     * @param capacity the number of tokens refilled over the period
+     * @param period   the period in nanoseconds
+     */
+    public RateLimitBucket(final String name, final long capacity, final long period) {
+        if (capacity < 1 || period < 1) {
+            throw new IllegalArgumentException(String.format("The rate limit bucket '%s' must have a positive capacity and period.", name));
+        }
+        this.name = name;
+        this.capacity = capacity;
+        this.period = period;
+        this.emissionInterval = Math.max(1, period / capacity);
+        this.burstTolerance = this.emissionInterval * (capacity - 1);
+    }
+
+    /**
+     * Gets name.
+     *
+     * @return the name
+     */
+    public String getName() {
+        return this.name;
+    }
+
+    /**
+     * Gets capacity.
+     *
+     * @return the capacity
+     */
+    public long getCapacity() {
+        return this.capacity;
+    }
+
+    /**
+     * Gets period.
+     *
+     * @return the period in nanoseconds
+     */
+    public long getPeriod() {
+        return this.period;
+    }
+
+    /**
+     * Gets the time needed to refill one token.
+     *
+     * @return the emission interval in nanoseconds
+     */
+    public long getEmissionInterval() {
+        return this.emissionInterval;
+    }
+
+    /**
+     * Gets how far ahead of now a bucket is allowed to be, ie: the burst minus one token.
+     *
+     * @return the burst tolerance in nanoseconds
+     */
+    public long getBurstTolerance() {
+        return this.burstTolerance;
+    }
+}
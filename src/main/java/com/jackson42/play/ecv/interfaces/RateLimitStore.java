@@ -0,0 +1,30 @@
+/*
+ * Copyright (C) 2014 - 2019 PayinTech, SAS - All Rights Reserved
+ * Unauthorized copying of this file, via any medium is strictly prohibited
+ * Proprietary and confidential
+ */
+
+package com.jackson42.play.ecv.interfaces;
+
+
+/**
+ * Storage of the rate limit buckets.
+ *
+ * The implementation is resolved through the injector using the class set on
+ * "play-ecv.rate-limit.store". It MUST be thread safe and SHOULD be a singleton.
+ *
+ * @author Pierre Adam
+ * @since 26.10.19
+ */
+public interface RateLimitStore {
+
+    /**
+     * Try to take one token for the given key on the given bucket. The same key on two
+     * different buckets MUST be accounted separately.
+     *
+     * @param bucket the bucket
+     * @param key    the key within the bucket
+     * @return 0 if the token was taken, otherwise the time in nanoseconds before a token is available
+     */
+    long tryAcquire(final RateLimitBucket bucket, final String key);
+}
@@ -0,0 +1,314 @@
+/*
+ * Copyright (C) 2014 - 2019 PayinTech, SAS - All Rights Reserved
+ * Unauthorized copying of this file, via any medium is strictly prohibited
+ * Proprietary and confidential
+ */
+
+package com.jackson42.play.ecv.internal;
+
+import com.jackson42.play.ecv.interfaces.RateLimitBucket;
+import com.jackson42.play.ecv.interfaces.RateLimitStore;
+import com.typesafe.config.Config;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * In memory implementation of the rate limit store.
+ *
+ * Each bucket is a single AtomicLong holding its theoretical arrival time (GCRA), updated
+ * with a CAS loop. Buckets are spread over independent stripes. Once per idle timeout, each
+ * stripe is swept for idle buckets a few entries at a time by the requests passing by, so
+ * no request pays for a full scan.
+ *
+ * @author Pierre Adam
+ * @since 26.10.19
+ */
+@Singleton
+public class InMemoryRateLimitStore implements RateLimitStore {
+
+    /**
+     * The maximum number of entries checked by a request during a sweep.
+     */
+    private static final int SWEEP_BATCH = 8;
+
+    /**
+     * The value of an evicted bucket. A request reading it drops the bucket and creates a
+     * new one, so no token is ever taken from a bucket that is no longer on the map.
+     */
+    private static final long EVICTED = Long.MIN_VALUE;
+
+    /**
+     * The Clock.
+     */
+    private final LongSupplier clock;
+
+    /**
+     * The Origin of the clock.
+     */
+    private final long origin;
+
+    /**
+     * The Idle timeout in nanoseconds.
+     */
+    private final long idleTimeout;
+
+    /**
+     * The Shift used to select a stripe from the high bits of the hash.
+     */
+    private final int shift;
+
+    /**
+     * The Stripes.
+     */
+    private final Stripe[] stripes;
+
+    /**
+     * Instantiates a new In memory rate limit store.
+     *
+     * @param config Handle to application configuration
+     */
+    @Inject
+    public InMemoryRateLimitStore(final Config config) {
+        this(config.getInt("play-ecv.rate-limit.stripes"),
+                config.getDuration("play-ecv.rate-limit.idle-timeout", TimeUnit.NANOSECONDS));
+    }
+
+    /**
+     * Instantiates a new In memory rate limit store.
+     *
+     * @param stripes     the number of stripes, rounded up to a power of two
+     * @param idleTimeout the idle timeout in nanoseconds
+     */
+    public InMemoryRateLimitStore(final int stripes, final long idleTimeout) {
+        this(stripes, idleTimeout, System::nanoTime);
+    }
+
+    /**
+     * Instantiates a new In memory rate limit store.
+     *
+     * @param stripes     the number of stripes, rounded up to a power of two
+     * @param idleTimeout the idle timeout in nanoseconds
+     * @param clock       the clock in nanoseconds
+     */
+    InMemoryRateLimitStore(final int stripes, final long idleTimeout, final LongSupplier clock) {
+        if (stripes < 1 || stripes > 1 << 30 || idleTimeout < 1) {
+            throw new IllegalArgumentException("The number of stripes and the idle timeout must be positive.");
+        }
+        final int size = stripes == 1 ? 1 : Integer.highestOneBit(stripes - 1) << 1;
+        this.clock = clock;
+        this.origin = clock.getAsLong();
+        this.idleTimeout = idleTimeout;
+        this.shift = Integer.SIZE - Integer.numberOfTrailingZeros(size);
+        this.stripes = new Stripe[size];
+        for (int i = 0; i < size; i++) {
+            this.stripes[i] = new Stripe(idleTimeout);
+        }
+    }
+
+    @Override
+    public long tryAcquire(final RateLimitBucket rateLimitBucket, final String key) {
+        final long now = this.clock.getAsLong() - this.origin;
+        final Key bucketKey = new Key(rateLimitBucket.getName(), key);
+        final Stripe stripe = this.getStripe(bucketKey.hashCode());
+        stripe.sweep(now, this.idleTimeout);
+
+        final long emissionInterval = rateLimitBucket.getEmissionInterval();
+        final long burstTolerance = rateLimitBucket.getBurstTolerance();
+        while (true) {
+            AtomicLong bucket = stripe.buckets.get(bucketKey);
+            if (bucket == null) {
+                // Only lock the bin on a miss, computeIfAbsent always locks on Java 8.
+                bucket = stripe.buckets.computeIfAbsent(bucketKey, k -> new AtomicLong(now));
+            }
+            final long current = bucket.get();
+            if (current == EVICTED) {
+                stripe.buckets.remove(bucketKey, bucket);
+                continue;
+            }
+            final long tat = Math.max(current, now);
+            final long ahead = tat - now;
+            if (ahead > burstTolerance) {
+                return ahead - burstTolerance;
+            }
+            if (bucket.compareAndSet(current, tat + emissionInterval)) {
+                return 0;
+            }
+        }
+    }
+
+    /**
+     * Gets the stripe. The stripe is selected from the high bits of the mixed hash, the low
+     * bits are left to the map of the stripe to select its bins.
+     *
+     * @param hash the hash of the key
+     * @return the stripe
+     */
+    private Stripe getStripe(final int hash) {
+        if (this.stripes.length == 1) {
+            return this.stripes[0];
+        }
+        return this.stripes[(hash * 0x9E3779B9) >>> this.shift];
+    }
+
+    /**
+     * Gets the number of stripes.
+     *
+     * @return the number of stripes
+     */
+    int getStripeCount() {
+        return this.stripes.length;
+    }
+
+    /**
+     * Gets the number of buckets held by the store.
+     *
+     * @return the number of buckets
+     */
+    int size() {
+        int size = 0;
+        for (final Stripe stripe : this.stripes) {
+            size += stripe.buckets.size();
+        }
+        return size;
+    }
+
+    /**
+     * Key of a bucket, made of the bucket name and the key within the bucket.
+     *
+     * @author Pierre Adam
+     * @since 26.10.19
+     */
+    private static final class Key {
+
+        /**
+         * The Bucket name.
+         */
+        private final String bucket;
+
+        /**
+         * The Key within the bucket.
+         */
+        private final String key;
+
+        /**
+         * The Hash.
+         */
+        private final int hash;
+
+        /**
+         * Instantiates a new Key.
+         *
+         * @param bucket the bucket name
+         * @param key    the key within the bucket
+         */
+        private Key(final String bucket, final String key) {
+            this.bucket = bucket;
+            this.key = key;
+            this.hash = 31 * bucket.hashCode() + key.hashCode();
+        }
+
+        @Override
+        public boolean equals(final Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            final Key other = (Key) o;
+            return this.hash == other.hash && this.key.equals(other.key) && this.bucket.equals(other.bucket);
+        }
+
+        @Override
+        public int hashCode() {
+            return this.hash;
+        }
+    }
+
+    /**
+     * Stripe.
+     *
+     * @author Pierre Adam
+     * @since 26.10.19
+     */
+    private static final class Stripe {
+
+        /**
+         * The Buckets.
+         */
+        private final ConcurrentMap<Key, AtomicLong> buckets;
+
+        /**
+         * Whether a request is currently sweeping this stripe.
+         */
+        private final AtomicBoolean sweeping;
+
+        /**
+         * The Position of the sweep in progress, null if none.
+         */
+        private volatile Iterator<Map.Entry<Key, AtomicLong>> cursor;
+
+        /**
+         * The Time of the next sweep.
+         */
+        private volatile long nextSweep;
+
+        /**
+         * Instantiates a new Stripe.
+         *
+         * @param idleTimeout the idle timeout in nanoseconds
+         */
+        private Stripe(final long idleTimeout) {
+            this.buckets = new ConcurrentHashMap<>();
+            this.sweeping = new AtomicBoolean(false);
+            this.nextSweep = idleTimeout;
+        }
+
+        /**
+         * Check at most {@link #SWEEP_BATCH} buckets and evict those idle for longer than the
+         * idle timeout. A bucket whose theoretical arrival time is in the past is full, so
+         * dropping it does not change its behaviour. Never waits for another sweeping request.
+         *
+         * @param now         the current time
+         * @param idleTimeout the idle timeout in nanoseconds
+         */
+        private void sweep(final long now, final long idleTimeout) {
+            if (this.cursor == null && now < this.nextSweep) {
+                return;
+            }
+            if (!this.sweeping.compareAndSet(false, true)) {
+                return;
+            }
+            try {
+                Iterator<Map.Entry<Key, AtomicLong>> iterator = this.cursor;
+                if (iterator == null) {
+                    if (now < this.nextSweep) {
+                        return;
+                    }
+                    this.nextSweep = now + idleTimeout;
+                    iterator = this.buckets.entrySet().iterator();
+                }
+                for (int i = 0; i < SWEEP_BATCH && iterator.hasNext(); i++) {
+                    final Map.Entry<Key, AtomicLong> entry = iterator.next();
+                    final AtomicLong bucket = entry.getValue();
+                    final long value = bucket.get();
+                    if (value != EVICTED && now - value > idleTimeout && bucket.compareAndSet(value, EVICTED)) {
+                        this.buckets.remove(entry.getKey(), bucket);
+                    }
+                }
+                this.cursor = iterator.hasNext() ? iterator : null;
+            } finally {
+                this.sweeping.set(false);
+            }
+        }
+    }
+}
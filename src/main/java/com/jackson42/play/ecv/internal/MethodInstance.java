@@ -68,18 +68,18 @@ public class MethodInstance {
         this.bindableArgs = new HashMap<>();
         this.securityRules = new HashMap<>();
         this.annotationArgs = new HashMap<>();
-        this.resolveArgs(securityRules, cachedBinder, handlerDef);
-        this.feedSecurityRules(securityRules, cachedSecurityRule);
+        final Method controllerMethod = this.findControllerMethod(handlerDef);
+        this.resolveArgs(securityRules, cachedBinder, controllerMethod);
+        this.feedSecurityRules(securityRules, cachedSecurityRule, handlerDef, controllerMethod);
     }
 
     /**
-     * Resolve args.
+     * Find controller method.
      *
-     * @param securityRules the security rules
-     * @param cachedBinder  the cached binder
-     * @param handlerDef    the handler def
+     * @param handlerDef the handler def
+     * @return the controller method
      */
-    private void resolveArgs(final Class<? extends ECValidationRule>[] securityRules, final CachedBinder cachedBinder, final HandlerDef handlerDef) {
+    private Method findControllerMethod(final HandlerDef handlerDef) {
         Method controllerMethod = null;
         try {
             final Class<?> cClass = handlerDef.classLoader().loadClass(handlerDef.controller());
@@ -97,7 +97,17 @@ public class MethodInstance {
         } catch (final NoSuchMethodException e) {
             throw new RuntimeException(String.format("Unable to find the method %s in %s", handlerDef.method(), handlerDef.controller()));
         }
+        return controllerMethod;
+    }
 
+    /**
+     * Resolve args.
+     *
+     * @param securityRules    the security rules
+     * @param cachedBinder     the cached binder
+     * @param controllerMethod the controller method
+     */
+    private void resolveArgs(final Class<? extends ECValidationRule>[] securityRules, final CachedBinder cachedBinder, final Method controllerMethod) {
         for (final Class<? extends ECValidationRule> securityRule : securityRules) {
             for (final Method method : securityRule.getMethods()) {
                 if (method.getName().startsWith("validate") && method.getReturnType().equals(CompletionStage.class)) {
@@ -149,10 +159,15 @@ public class MethodInstance {
      *
      * @param securityRules      the security rules
      * @param cachedSecurityRule the cached security rule
+     * @param handlerDef         the handler def
+     * @param controllerMethod   the controller method
      */
-    private void feedSecurityRules(final Class<? extends ECValidationRule>[] securityRules, final CachedSecurityRule cachedSecurityRule) {
+    private void feedSecurityRules(final Class<? extends ECValidationRule>[] securityRules, final CachedSecurityRule cachedSecurityRule,
+                                   final HandlerDef handlerDef, final Method controllerMethod) {
         for (final Class<? extends ECValidationRule> securityRule : securityRules) {
-            this.securityRules.put(securityRule, cachedSecurityRule.getInstance(securityRule));
+            final ECValidationRule instance = cachedSecurityRule.getInstance(securityRule);
+            instance.prepare(handlerDef, controllerMethod);
+            this.securityRules.put(securityRule, instance);
         }
     }
 
@@ -0,0 +1,228 @@
+/*
+ * Copyright (C) 2014 - 2019 PayinTech, SAS - All Rights Reserved
+ * Unauthorized copying of this file, via any medium is strictly prohibited
+ * Proprietary and confidential
+ */
+
+package com.jackson42.play.ecv.rules;
+
+import com.jackson42.play.ecv.RouteExtractor;
+import com.jackson42.play.ecv.annotations.RateLimit;
+import com.jackson42.play.ecv.interfaces.ECValidationRule;
+import com.jackson42.play.ecv.interfaces.RateLimitBucket;
+import play.api.routing.HandlerDef;
+import play.libs.typedmap.TypedMap;
+import play.mvc.Http;
+import play.mvc.Result;
+import play.mvc.Results;
+
+import javax.inject.Inject;
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Rate limiting rule.
+ *
+ * Use it with {@code @ECValidate(RateLimitRule.class)} and configure it with {@link RateLimit}
+ * on the controller method. The caller is identified by the raw values of the route params
+ * and the request attributes listed on the annotation. When one of them is missing on the
+ * request, {@link #onMissingKey(Http.Request, RateLimit)} decides what to do.
+ *
+ * <pre>
+ * public final class Attrs {
+ *     public static final TypedKey&lt;Long&gt; USER_ID = TypedKey.create("userId");
+ * }
+ *
+ * &#64;ECValidate(RateLimitRule.class)
+ * &#64;RateLimit(value = "api", params = {"account"}, attributes = {"com.example.Attrs.USER_ID"})
+ * public Result show(final Http.Request request, final Account account) {
+ *     ...
+ * }
+ * </pre>
+ *
+ * Every value used as a key part MUST have a value based toString, as two requests only share
+ * a bucket when their key parts give the same strings. Values relying on Object.toString are
+ * rejected.
+ *
+ * To identify the caller with bound objects, extend this class and declare your own
+ * validation method calling {@link #consume(RateLimit, Object...)}.
+ *
+ * <pre>
+ * public class AccountRateLimitRule extends RateLimitRule {
+ *
+ *     &#64;Inject
+ *     public AccountRateLimitRule(final RateLimiter rateLimiter) {
+ *         super(rateLimiter);
+ *     }
+ *
+ *     public CompletionStage&lt;Result&gt; validateAccount(final RateLimit rateLimit, &#64;RequiredParam("account") final Account account) {
+ *         return this.consume(rateLimit, account.getId());
+ *     }
+ * }
+ * </pre>
+ *
+ * @author Pierre Adam
+ * @since 26.10.19
+ */
+public class RateLimitRule implements ECValidationRule {
+
+    /**
+     * Whether a class overrides Object.toString.
+     */
+    private static final ClassValue<Boolean> VALUE_BASED_TO_STRING = new ClassValue<Boolean>() {
+        @Override
+        protected Boolean computeValue(final Class<?> type) {
+            try {
+                return type.getMethod("toString").getDeclaringClass() != Object.class;
+            } catch (final NoSuchMethodException e) {
+                return false;
+            }
+        }
+    };
+
+    /**
+     * The prefix of the keys built from the remote address when a key part is missing. A key
+     * built by {@link #toKey(Object...)} never starts with it.
+     */
+    private static final String MISSING_KEY_PREFIX = "@";
+
+    /**
+     * The Rate limiter.
+     */
+    private final RateLimiter rateLimiter;
+
+    /**
+     * Instantiates a new Rate limit rule.
+     *
+     * @param rateLimiter the rate limiter
+     */
+    @Inject
+    public RateLimitRule(final RateLimiter rateLimiter) {
+        this.rateLimiter = rateLimiter;
+    }
+
+    @Override
+    public void prepare(final HandlerDef handlerDef, final Method controllerMethod) {
+        this.rateLimiter.check(controllerMethod.getAnnotation(RateLimit.class), handlerDef.path());
+    }
+
+    /**
+     * Validate the rate limit using the route params and request attributes of the annotation.
+     *
+     * @param request   the request
+     * @param rateLimit the rate limit annotation of the controller method
+     * @return the completion stage
+     */
+    public CompletionStage<Result> validateRateLimit(final Http.Request request, final RateLimit rateLimit) {
+        if (rateLimit == null) {
+            return this.consume(null, request.remoteAddress());
+        }
+        final String[] params = rateLimit.params();
+        final String[] attributes = rateLimit.attributes();
+        if (params.length == 0 && attributes.length == 0) {
+            return this.consume(rateLimit, request.remoteAddress());
+        }
+
+        final Object[] keyParts = new Object[params.length + attributes.length];
+        if (params.length > 0) {
+            final Map<String, String> extractedValues = RouteExtractor.extract(request);
+            for (int i = 0; i < params.length; i++) {
+                final String value = extractedValues.get(params[i]);
+                if (value == null) {
+                    return this.onMissingKey(request, rateLimit);
+                }
+                keyParts[i] = value;
+            }
+        }
+        final TypedMap attrs = request.attrs();
+        for (int i = 0; i < attributes.length; i++) {
+            final Object value = attrs.getOptional(this.rateLimiter.getAttributeKey(attributes[i])).orElse(null);
+            if (value == null) {
+                return this.onMissingKey(request, rateLimit);
+            }
+            keyParts[params.length + i] = value;
+        }
+        return this.consume(rateLimit, keyParts);
+    }
+
+    /**
+     * Called when a route param or a request attribute of the annotation is missing on the
+     * request, ie: an anonymous caller on a limit keyed by user. By default, the caller is
+     * identified by its remote address, on keys that never collide with the regular ones.
+     * Override to reject or to let the request through instead.
+     *
+     * @param request   the request
+     * @param rateLimit the rate limit annotation of the controller method
+     * @return null if the request can go through, otherwise the result to return
+     */
+    protected CompletionStage<Result> onMissingKey(final Http.Request request, final RateLimit rateLimit) {
+        return this.acquire(rateLimit, MISSING_KEY_PREFIX + this.toKey(request.remoteAddress()));
+    }
+
+    /**
+     * Take one token from the bucket identified by the given key parts.
+     *
+     * @param rateLimit the rate limit annotation of the controller method, "default" bucket is used if null
+     * @param keyParts  the key parts
+     * @return null if the token was taken, otherwise the result of {@link #onLimitExceeded(long)}
+     */
+    protected CompletionStage<Result> consume(final RateLimit rateLimit, final Object... keyParts) {
+        return this.acquire(rateLimit, this.toKey(keyParts));
+    }
+
+    /**
+     * Take one token from the bucket identified by the given key.
+     *
+     * @param rateLimit the rate limit annotation of the controller method, "default" bucket is used if null
+     * @param key       the key
+     * @return null if the token was taken, otherwise the result of {@link #onLimitExceeded(long)}
+     */
+    private CompletionStage<Result> acquire(final RateLimit rateLimit, final String key) {
+        final RateLimitBucket bucket = this.rateLimiter.getBucket(rateLimit == null ? "default" : rateLimit.value());
+        final long wait = this.rateLimiter.tryAcquire(bucket, key);
+        return wait == 0 ? null : this.onLimitExceeded(wait);
+    }
+
+    /**
+     * Build the key from the key parts. Each part is prefixed by its length so two different
+     * lists of parts never give the same key. A null part is written as "-", so every caller
+     * passing null at the same position shares the bucket.
+     *
+     * @param keyParts the key parts
+     * @return the key
+     * @throws IllegalArgumentException if a key part relies on Object.toString
+     */
+    protected String toKey(final Object... keyParts) {
+        final StringBuilder builder = new StringBuilder();
+        for (final Object keyPart : keyParts) {
+            if (keyPart == null) {
+                builder.append('-');
+                continue;
+            }
+            if (!VALUE_BASED_TO_STRING.get(keyPart.getClass())) {
+                throw new IllegalArgumentException(
+                        String.format("Invalid rate limit key. '%s' does not override toString.", keyPart.getClass().getName())
+                );
+            }
+            final String value = keyPart.toString();
+            builder.append(value.length()).append(':').append(value);
+        }
+        return builder.toString();
+    }
+
+    /**
+     * Build the result returned when the limit is exceeded.
+     *
+     * @param wait the time in nanoseconds before a token is available
+     * @return the completion stage
+     */
+    protected CompletionStage<Result> onLimitExceeded(final long wait) {
+        final long retryAfter = Math.max(1, (wait + TimeUnit.SECONDS.toNanos(1) - 1) / TimeUnit.SECONDS.toNanos(1));
+        return CompletableFuture.completedFuture(
+                Results.status(Http.Status.TOO_MANY_REQUESTS).withHeader(Http.HeaderNames.RETRY_AFTER, String.valueOf(retryAfter))
+        );
+    }
+}
@@ -0,0 +1,218 @@
+/*
+ * Copyright (C) 2014 - 2019 PayinTech, SAS - All Rights Reserved
+ * Unauthorized copying of this file, via any medium is strictly prohibited
+ * Proprietary and confidential
+ */
+
+package com.jackson42.play.ecv.rules;
+
+import com.jackson42.play.ecv.RouteExtractor;
+import com.jackson42.play.ecv.annotations.RateLimit;
+import com.jackson42.play.ecv.interfaces.RateLimitBucket;
+import com.jackson42.play.ecv.interfaces.RateLimitStore;
+import com.typesafe.config.Config;
+import com.typesafe.config.ConfigUtil;
+import play.Application;
+import play.libs.typedmap.TypedKey;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * RateLimiter.
+ *
+ * Hold the buckets defined on the configuration and forward the calls to the
+ * configured {@link RateLimitStore}. All the buckets are parsed and validated
+ * when the rate limiter is built.
+ *
+ * @author Pierre Adam
+ * @since 26.10.19
+ */
+@Singleton
+public class RateLimiter {
+
+    /**
+     * The Class loader.
+     */
+    private final ClassLoader classLoader;
+
+    /**
+     * The Store.
+     */
+    private final RateLimitStore store;
+
+    /**
+     * The Buckets.
+     */
+    private final Map<String, RateLimitBucket> buckets;
+
+    /**
+     * The Attribute keys.
+     */
+    private final ConcurrentMap<String, TypedKey<?>> attributeKeys;
+
+    /**
+     * Instantiates a new Rate limiter.
+     *
+     * @param application the application
+     * @param config      Handle to application configuration
+     */
+    @Inject
+    public RateLimiter(final Application application, final Config config) {
+        this(application.classloader(), config, RateLimiter.resolveStore(application, config.getString("play-ecv.rate-limit.store")));
+    }
+
+    /**
+     * Instantiates a new Rate limiter.
+     *
+     * @param classLoader the class loader used to resolve the request attributes
+     * @param config      Handle to application configuration
+     * @param store       the store
+     */
+    RateLimiter(final ClassLoader classLoader, final Config config, final RateLimitStore store) {
+        this.classLoader = classLoader;
+        this.buckets = RateLimiter.parseBuckets(config.getConfig("play-ecv.rate-limit.buckets"));
+        this.store = store;
+        this.attributeKeys = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * Parse buckets.
+     *
+     * @param config the buckets configuration
+     * @return the buckets
+     */
+    private static Map<String, RateLimitBucket> parseBuckets(final Config config) {
+        final Map<String, RateLimitBucket> results = new HashMap<>();
+        for (final String name : config.root().keySet()) {
+            final Config bucketConfig = config.getConfig(ConfigUtil.joinPath(name));
+            results.put(name, new RateLimitBucket(name, bucketConfig.getLong("capacity"),
+                    bucketConfig.getDuration("period", TimeUnit.NANOSECONDS)));
+        }
+        return Collections.unmodifiableMap(results);
+    }
+
+    /**
+     * Resolve store.
+     *
+     * @param application the application
+     * @param className   the class name of the store
+     * @return the store
+     */
+    private static RateLimitStore resolveStore(final Application application, final String className) {
+        final Class<?> sClass;
+        try {
+            sClass = application.classloader().loadClass(className);
+        } catch (final ClassNotFoundException e) {
+            throw new RuntimeException(String.format("Unable to load the rate limit store %s", className), e);
+        }
+        if (!RateLimitStore.class.isAssignableFrom(sClass)) {
+            throw new RuntimeException(String.format("The rate limit store '%s' does not implement RateLimitStore.", className));
+        }
+        return (RateLimitStore) application.injector().instanceOf(sClass);
+    }
+
+    /**
+     * Check that everything the annotation refers to exists.
+     *
+     * @param rateLimit    the rate limit annotation, the "default" bucket is checked if null
+     * @param routePattern the pattern of the route the annotation is used on
+     */
+    public void check(final RateLimit rateLimit, final String routePattern) {
+        if (rateLimit == null) {
+            this.getBucket("default");
+            return;
+        }
+        this.getBucket(rateLimit.value());
+        final Collection<String> routeParams = RouteExtractor.getParamNames(routePattern);
+        for (final String param : rateLimit.params()) {
+            if (!routeParams.contains(param)) {
+                throw new RuntimeException(String.format("The rate limit param '%s' is not a variable of the route '%s'.", param, routePattern));
+            }
+        }
+        for (final String attribute : rateLimit.attributes()) {
+            this.getAttributeKey(attribute);
+        }
+    }
+
+    /**
+     * Gets bucket.
+     *
+     * @param name the bucket name
+     * @return the bucket
+     */
+    public RateLimitBucket getBucket(final String name) {
+        final RateLimitBucket bucket = this.buckets.get(name);
+        if (bucket == null) {
+            throw new RuntimeException(String.format("The rate limit bucket '%s' is not defined.", name));
+        }
+        return bucket;
+    }
+
+    /**
+     * Gets the request attribute key.
+     *
+     * @param attribute the fully qualified name of a static TypedKey field
+     * @return the typed key
+     */
+    public TypedKey<?> getAttributeKey(final String attribute) {
+        final TypedKey<?> cached = this.attributeKeys.get(attribute);
+        if (cached != null) {
+            return cached;
+        }
+        return this.attributeKeys.computeIfAbsent(attribute, this::resolveAttributeKey);
+    }
+
+    /**
+     * Resolve the request attribute key.
+     *
+     * @param attribute the fully qualified name of a static TypedKey field
+     * @return the typed key
+     */
+    private TypedKey<?> resolveAttributeKey(final String attribute) {
+        final int index = attribute.lastIndexOf('.');
+        if (index < 1) {
+            throw new RuntimeException(String.format("Invalid request attribute '%s'. Expected 'package.Class.FIELD'.", attribute));
+        }
+        final Field field;
+        try {
+            final Class<?> aClass = this.classLoader.loadClass(attribute.substring(0, index));
+            field = aClass.getField(attribute.substring(index + 1));
+        } catch (final ClassNotFoundException | NoSuchFieldException e) {
+            throw new RuntimeException(String.format("Unable to resolve the request attribute '%s'.", attribute), e);
+        }
+        if (!Modifier.isStatic(field.getModifiers()) || !TypedKey.class.isAssignableFrom(field.getType())) {
+            throw new RuntimeException(String.format("The request attribute '%s' is not a static TypedKey.", attribute));
+        }
+        final TypedKey<?> key;
+        try {
+            key = (TypedKey<?>) field.get(null);
+        } catch (final IllegalAccessException e) {
+            throw new RuntimeException(String.format("Unable to resolve the request attribute '%s'.", attribute), e);
+        }
+        if (key == null) {
+            throw new RuntimeException(String.format("The request attribute '%s' is null.", attribute));
+        }
+        return key;
+    }
+
+    /**
+     * Try to take one token.
+     *
+     * @param bucket the bucket
+     * @param key    the key within the bucket
+     * @return 0 if the token was taken, otherwise the time in nanoseconds before a token is available
+     */
+    public long tryAcquire(final RateLimitBucket bucket, final String key) {
+        return this.store.tryAcquire(bucket, key);
+    }
+}
@@ -0,0 +1,32 @@
+/*
+ * Copyright (C) 2014 - 2019 PayinTech, SAS - All Rights Reserved
+ * Unauthorized copying of this file, via any medium is strictly prohibited
+ * Proprietary and confidential
+ */
+
+package com.jackson42.play.ecv;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.HashSet;
+
+/**
+ * RouteExtractorTest.
+ *
+ * @author Pierre Adam
+ * @since 26.10.19
+ */
+public class RouteExtractorTest {
+
+    /**
+     * The names of the variables are read from the route pattern.
+     */
+    @Test
+    public void testGetParamNames() {
+        Assert.assertEquals(new HashSet<>(Arrays.asList("account", "item")),
+                new HashSet<>(RouteExtractor.getParamNames("/accounts/$account<[^/]+>/items/$item<[^/]+>")));
+        Assert.assertTrue(RouteExtractor.getParamNames("/accounts").isEmpty());
+    }
+}
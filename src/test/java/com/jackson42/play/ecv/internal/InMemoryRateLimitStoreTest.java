@@ -0,0 +1,180 @@
+/*
+ * Copyright (C) 2014 - 2019 PayinTech, SAS - All Rights Reserved
+ * Unauthorized copying of this file, via any medium is strictly prohibited
+ * Proprietary and confidential
+ */
+
+package com.jackson42.play.ecv.internal;
+
+import com.jackson42.play.ecv.interfaces.RateLimitBucket;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * InMemoryRateLimitStoreTest.
+ *
+ * @author Pierre Adam
+ * @since 26.10.19
+ */
+public class InMemoryRateLimitStoreTest {
+
+    /**
+     * One second in nanoseconds.
+     */
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    /**
+     * A bucket of 5 tokens refilled over 5 seconds, ie: one token per second.
+     */
+    private static final RateLimitBucket BUCKET = new RateLimitBucket("test", 5, 5 * SECOND);
+
+    /**
+     * Burst of exactly the capacity is allowed, then the next call must wait one interval.
+     */
+    @Test
+    public void testBurstThenDenied() {
+        final AtomicLong clock = new AtomicLong(0);
+        final InMemoryRateLimitStore store = new InMemoryRateLimitStore(16, 60 * SECOND, clock::get);
+        for (int i = 0; i < 5; i++) {
+            Assert.assertEquals(0, store.tryAcquire(BUCKET, "key"));
+        }
+        Assert.assertEquals(SECOND, store.tryAcquire(BUCKET, "key"));
+
+        clock.addAndGet(SECOND / 2);
+        Assert.assertEquals(SECOND / 2, store.tryAcquire(BUCKET, "key"));
+    }
+
+    /**
+     * A token comes back after one emission interval.
+     */
+    @Test
+    public void testRefill() {
+        final AtomicLong clock = new AtomicLong(0);
+        final InMemoryRateLimitStore store = new InMemoryRateLimitStore(16, 60 * SECOND, clock::get);
+        for (int i = 0; i < 5; i++) {
+            Assert.assertEquals(0, store.tryAcquire(BUCKET, "key"));
+        }
+        clock.addAndGet(BUCKET.getEmissionInterval());
+        Assert.assertEquals(0, store.tryAcquire(BUCKET, "key"));
+        Assert.assertEquals(SECOND, store.tryAcquire(BUCKET, "key"));
+    }
+
+    /**
+     * The same key on two buckets, or two keys on the same bucket, are accounted separately.
+     */
+    @Test
+    public void testKeysAreIndependent() {
+        final InMemoryRateLimitStore store = new InMemoryRateLimitStore(16, 60 * SECOND, () -> 0);
+        final RateLimitBucket other = new RateLimitBucket("other", 1, SECOND);
+        Assert.assertEquals(0, store.tryAcquire(other, "key"));
+        Assert.assertNotEquals(0, store.tryAcquire(other, "key"));
+        Assert.assertEquals(0, store.tryAcquire(other, "another"));
+        Assert.assertEquals(0, store.tryAcquire(BUCKET, "key"));
+    }
+
+    /**
+     * An idle bucket is evicted and comes back full.
+     */
+    @Test
+    public void testIdleEviction() {
+        final AtomicLong clock = new AtomicLong(0);
+        final InMemoryRateLimitStore store = new InMemoryRateLimitStore(1, 10 * SECOND, clock::get);
+        for (int i = 0; i < 5; i++) {
+            Assert.assertEquals(0, store.tryAcquire(BUCKET, "idle"));
+        }
+        Assert.assertEquals(1, store.size());
+
+        // The bucket is full again at 5s and idle for longer than the timeout after 15s.
+        clock.set(16 * SECOND);
+        Assert.assertEquals(0, store.tryAcquire(BUCKET, "other"));
+        Assert.assertEquals(1, store.size());
+
+        for (int i = 0; i < 5; i++) {
+            Assert.assertEquals(0, store.tryAcquire(BUCKET, "idle"));
+        }
+        Assert.assertEquals(SECOND, store.tryAcquire(BUCKET, "idle"));
+    }
+
+    /**
+     * A bucket still in use is not evicted.
+     */
+    @Test
+    public void testActiveBucketIsKept() {
+        final AtomicLong clock = new AtomicLong(0);
+        final InMemoryRateLimitStore store = new InMemoryRateLimitStore(1, 10 * SECOND, clock::get);
+        Assert.assertEquals(0, store.tryAcquire(BUCKET, "active"));
+        clock.set(10 * SECOND);
+        Assert.assertEquals(0, store.tryAcquire(BUCKET, "other"));
+        Assert.assertEquals(2, store.size());
+    }
+
+    /**
+     * Threads hammering the same key get exactly the capacity.
+     *
+     * @throws InterruptedException if interrupted
+     */
+    @Test
+    public void testConcurrentAcquire() throws InterruptedException {
+        final RateLimitBucket bucket = new RateLimitBucket("concurrent", 100, TimeUnit.HOURS.toNanos(1));
+        final InMemoryRateLimitStore store = new InMemoryRateLimitStore(16, TimeUnit.HOURS.toNanos(1));
+        final AtomicInteger successes = new AtomicInteger(0);
+        final CountDownLatch start = new CountDownLatch(1);
+        final List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            final Thread thread = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (final InterruptedException e) {
+                    return;
+                }
+                for (int j = 0; j < 1000; j++) {
+                    if (store.tryAcquire(bucket, "shared") == 0) {
+                        successes.incrementAndGet();
+                    }
+                }
+            });
+            thread.start();
+            threads.add(thread);
+        }
+        start.countDown();
+        for (final Thread thread : threads) {
+            thread.join();
+        }
+        Assert.assertEquals(100, successes.get());
+    }
+
+    /**
+     * The number of stripes is rounded up to a power of two.
+     */
+    @Test
+    public void testStripeCount() {
+        Assert.assertEquals(1, new InMemoryRateLimitStore(1, SECOND).getStripeCount());
+        Assert.assertEquals(2, new InMemoryRateLimitStore(2, SECOND).getStripeCount());
+        Assert.assertEquals(8, new InMemoryRateLimitStore(5, SECOND).getStripeCount());
+        Assert.assertEquals(16, new InMemoryRateLimitStore(16, SECOND).getStripeCount());
+        Assert.assertEquals(32, new InMemoryRateLimitStore(17, SECOND).getStripeCount());
+    }
+
+    /**
+     * Non positive stripe count is rejected.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidStripes() {
+        new InMemoryRateLimitStore(0, SECOND);
+    }
+
+    /**
+     * Non positive idle timeout is rejected.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidIdleTimeout() {
+        new InMemoryRateLimitStore(16, 0);
+    }
+}
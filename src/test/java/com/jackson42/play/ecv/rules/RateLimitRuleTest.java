@@ -0,0 +1,96 @@
+/*
+ * Copyright (C) 2014 - 2019 PayinTech, SAS - All Rights Reserved
+ * Unauthorized copying of this file, via any medium is strictly prohibited
+ * Proprietary and confidential
+ */
+
+package com.jackson42.play.ecv.rules;
+
+import org.junit.Assert;
+import org.junit.Test;
+import play.mvc.Http;
+import play.mvc.Result;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * RateLimitRuleTest.
+ *
+ * @author Pierre Adam
+ * @since 26.10.19
+ */
+public class RateLimitRuleTest {
+
+    /**
+     * The Rule. Key building and results do not use the rate limiter.
+     */
+    private final RateLimitRule rule = new RateLimitRule(null);
+
+    /**
+     * Each part is prefixed by its length.
+     */
+    @Test
+    public void testToKey() {
+        Assert.assertEquals("3:abc", this.rule.toKey("abc"));
+        Assert.assertEquals("1:a2:42", this.rule.toKey("a", 42L));
+        Assert.assertEquals("0:", this.rule.toKey(""));
+    }
+
+    /**
+     * Different lists of parts never give the same key.
+     */
+    @Test
+    public void testToKeyHasNoCollision() {
+        Assert.assertNotEquals(this.rule.toKey("a|", "b"), this.rule.toKey("a", "|b"));
+        Assert.assertNotEquals(this.rule.toKey("a:b"), this.rule.toKey("a", "b"));
+        Assert.assertNotEquals(this.rule.toKey("1:a"), this.rule.toKey("a"));
+        Assert.assertNotEquals(this.rule.toKey("-"), this.rule.toKey((Object) null));
+    }
+
+    /**
+     * A null part is written as "-".
+     */
+    @Test
+    public void testToKeyWithNull() {
+        Assert.assertEquals("-", this.rule.toKey((Object) null));
+        Assert.assertEquals("1:a-1:b", this.rule.toKey("a", null, "b"));
+    }
+
+    /**
+     * A part relying on Object.toString is rejected.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testToKeyRejectsIdentityToString() {
+        this.rule.toKey(new Object());
+    }
+
+    /**
+     * Retry-After is the wait rounded up to the next second, at least one second.
+     */
+    @Test
+    public void testRetryAfter() {
+        Assert.assertEquals("1", this.retryAfter(1));
+        Assert.assertEquals("1", this.retryAfter(TimeUnit.SECONDS.toNanos(1)));
+        Assert.assertEquals("2", this.retryAfter(TimeUnit.SECONDS.toNanos(1) + 1));
+        Assert.assertEquals("60", this.retryAfter(TimeUnit.MINUTES.toNanos(1)));
+    }
+
+    /**
+     * The limit exceeded result is a 429.
+     */
+    @Test
+    public void testLimitExceededStatus() {
+        final Result result = this.rule.onLimitExceeded(1).toCompletableFuture().join();
+        Assert.assertEquals(Http.Status.TOO_MANY_REQUESTS, result.status());
+    }
+
+    /**
+     * Gets the Retry-After header returned for the given wait.
+     *
+     * @param wait the wait in nanoseconds
+     * @return the Retry-After header
+     */
+    private String retryAfter(final long wait) {
+        return this.rule.onLimitExceeded(wait).toCompletableFuture().join().header(Http.HeaderNames.RETRY_AFTER).orElse(null);
+    }
+}
@@ -0,0 +1,208 @@
+/*
+ * Copyright (C) 2014 - 2019 PayinTech, SAS - All Rights Reserved
+ * Unauthorized copying of this file, via any medium is strictly prohibited
+ * Proprietary and confidential
+ */
+
+package com.jackson42.play.ecv.rules;
+
+import com.jackson42.play.ecv.annotations.RateLimit;
+import com.jackson42.play.ecv.interfaces.RateLimitBucket;
+import com.jackson42.play.ecv.internal.InMemoryRateLimitStore;
+import com.typesafe.config.ConfigFactory;
+import org.junit.Assert;
+import org.junit.Test;
+import play.libs.typedmap.TypedKey;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * RateLimiterTest.
+ *
+ * @author Pierre Adam
+ * @since 26.10.19
+ */
+public class RateLimiterTest {
+
+    /**
+     * A valid request attribute.
+     */
+    public static final TypedKey<Long> USER_ID = TypedKey.create("userId");
+
+    /**
+     * A static field which is not a TypedKey.
+     */
+    public static final String NOT_A_KEY = "userId";
+
+    /**
+     * The route used to check the params.
+     */
+    private static final String ROUTE = "/accounts/$account<[^/]+>";
+
+    /**
+     * The Configuration.
+     */
+    private static final String CONFIG = "play-ecv.rate-limit.buckets {\n"
+            + "  default { capacity = 60, period = 1 minute }\n"
+            + "  api { capacity = 10, period = 5 seconds }\n"
+            + "}";
+
+    /**
+     * An instance field.
+     */
+    public final TypedKey<Long> instanceKey = TypedKey.create("instance");
+
+    /**
+     * Build a rate limiter.
+     *
+     * @param config the configuration
+     * @return the rate limiter
+     */
+    private static RateLimiter build(final String config) {
+        return new RateLimiter(RateLimiterTest.class.getClassLoader(), ConfigFactory.parseString(config),
+                new InMemoryRateLimitStore(1, TimeUnit.MINUTES.toNanos(1)));
+    }
+
+    /**
+     * Gets the rate limit annotation of a method of this class.
+     *
+     * @param name the method name
+     * @return the annotation
+     */
+    private static RateLimit annotation(final String name) {
+        try {
+            return RateLimiterTest.class.getDeclaredMethod(name).getAnnotation(RateLimit.class);
+        } catch (final NoSuchMethodException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    @RateLimit(value = "api", params = {"account"}, attributes = {"com.jackson42.play.ecv.rules.RateLimiterTest.USER_ID"})
+    private void valid() {
+    }
+
+    @RateLimit("unknown")
+    private void unknownBucket() {
+    }
+
+    @RateLimit(value = "api", params = {"acount"})
+    private void unknownParam() {
+    }
+
+    @RateLimit(value = "api", attributes = {"com.jackson42.play.ecv.rules.RateLimiterTest.UNKNOWN"})
+    private void unknownAttribute() {
+    }
+
+    /**
+     * The buckets are parsed from the configuration.
+     */
+    @Test
+    public void testBuckets() {
+        final RateLimitBucket bucket = RateLimiterTest.build(CONFIG).getBucket("api");
+        Assert.assertEquals("api", bucket.getName());
+        Assert.assertEquals(10, bucket.getCapacity());
+        Assert.assertEquals(TimeUnit.SECONDS.toNanos(5), bucket.getPeriod());
+        Assert.assertEquals(TimeUnit.MILLISECONDS.toNanos(500), bucket.getEmissionInterval());
+        Assert.assertEquals(TimeUnit.MILLISECONDS.toNanos(4500), bucket.getBurstTolerance());
+    }
+
+    /**
+     * An invalid bucket is rejected when the rate limiter is built.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidBucket() {
+        RateLimiterTest.build("play-ecv.rate-limit.buckets.api { capacity = 0, period = 1 second }");
+    }
+
+    /**
+     * An unknown bucket is rejected.
+     */
+    @Test(expected = RuntimeException.class)
+    public void testUnknownBucket() {
+        RateLimiterTest.build(CONFIG).getBucket("unknown");
+    }
+
+    /**
+     * A valid annotation passes the check.
+     */
+    @Test
+    public void testCheck() {
+        final RateLimiter rateLimiter = RateLimiterTest.build(CONFIG);
+        rateLimiter.check(RateLimiterTest.annotation("valid"), ROUTE);
+        rateLimiter.check(null, ROUTE);
+    }
+
+    /**
+     * The check rejects an unknown bucket.
+     */
+    @Test(expected = RuntimeException.class)
+    public void testCheckUnknownBucket() {
+        RateLimiterTest.build(CONFIG).check(RateLimiterTest.annotation("unknownBucket"), ROUTE);
+    }
+
+    /**
+     * The check rejects a param which is not on the route.
+     */
+    @Test(expected = RuntimeException.class)
+    public void testCheckUnknownParam() {
+        RateLimiterTest.build(CONFIG).check(RateLimiterTest.annotation("unknownParam"), ROUTE);
+    }
+
+    /**
+     * The check rejects an unknown attribute.
+     */
+    @Test(expected = RuntimeException.class)
+    public void testCheckUnknownAttribute() {
+        RateLimiterTest.build(CONFIG).check(RateLimiterTest.annotation("unknownAttribute"), ROUTE);
+    }
+
+    /**
+     * Without annotation, the default bucket must exist.
+     */
+    @Test(expected = RuntimeException.class)
+    public void testCheckWithoutDefault() {
+        RateLimiterTest.build("play-ecv.rate-limit.buckets.api { capacity = 1, period = 1 second }").check(null, ROUTE);
+    }
+
+    /**
+     * The attribute key is resolved from a static field.
+     */
+    @Test
+    public void testGetAttributeKey() {
+        final RateLimiter rateLimiter = RateLimiterTest.build(CONFIG);
+        Assert.assertSame(USER_ID, rateLimiter.getAttributeKey("com.jackson42.play.ecv.rules.RateLimiterTest.USER_ID"));
+        Assert.assertSame(USER_ID, rateLimiter.getAttributeKey("com.jackson42.play.ecv.rules.RateLimiterTest.USER_ID"));
+    }
+
+    /**
+     * An attribute without class is rejected.
+     */
+    @Test(expected = RuntimeException.class)
+    public void testGetAttributeKeyWithoutClass() {
+        RateLimiterTest.build(CONFIG).getAttributeKey("USER_ID");
+    }
+
+    /**
+     * An attribute on an unknown class is rejected.
+     */
+    @Test(expected = RuntimeException.class)
+    public void testGetAttributeKeyUnknownClass() {
+        RateLimiterTest.build(CONFIG).getAttributeKey("com.example.Unknown.USER_ID");
+    }
+
+    /**
+     * An attribute which is not a TypedKey is rejected.
+     */
+    @Test(expected = RuntimeException.class)
+    public void testGetAttributeKeyNotATypedKey() {
+        RateLimiterTest.build(CONFIG).getAttributeKey("com.jackson42.play.ecv.rules.RateLimiterTest.NOT_A_KEY");
+    }
+
+    /**
+     * An attribute which is not static is rejected.
+     */
+    @Test(expected = RuntimeException.class)
+    public void testGetAttributeKeyNotStatic() {
+        RateLimiterTest.build(CONFIG).getAttributeKey("com.jackson42.play.ecv.rules.RateLimiterTest.instanceKey");
+    }
+}